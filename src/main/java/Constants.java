@@ -19,4 +19,11 @@ public class Constants {
 
     public static final int MONTH_COLUMN_ALL_SHEETS_IDX = 1;
 
+    // Report Server
+    public static final String REPORT_SERVER_ARG = "--serve";
+    public static final int REPORT_SERVER_PORT = 8080;
+    public static final int REPORT_SERVER_THREADS = 4;
+    public static final int REPORT_SERVER_REFRESH_MINUTES = 60;
+    public static final String HTTP_SERVER_NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
 }
@@ -10,17 +10,17 @@ public class DatabaseManager {
     private static final String PG_DB_USER = "postgres";
     private static final String PG_DB_PW = "postgres";
 
-    private Connection connect() {
-        Connection connection = null;
-        try {
-            connection = DriverManager.getConnection(PG_DB_URL, PG_DB_USER, PG_DB_PW);
-        } catch(SQLException e) {
-            System.out.println(e.getMessage());
-        }
-        return connection;
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(PG_DB_URL, PG_DB_USER, PG_DB_PW);
     }
 
-    public List<ReportEntity> getRevenueReportBy(int productId) {
+    /**
+     * Query yearly/monthly/weekly totals of a product
+     * @param productId the product id of product
+     * @return resultList
+     * @throws SQLException if the query fails
+     */
+    public List<ReportEntity> getRevenueReportBy(int productId) throws SQLException {
         List<ReportEntity> resultList = new ArrayList<>();
         Connection conn = null;
         PreparedStatement ps = null;
@@ -47,8 +47,6 @@ public class DatabaseManager {
                 resultList.add(resultRow);
             }
 
-        } catch (SQLException ex) {
-            System.out.println(ex.getMessage());
         } finally {
             DbUtils.closeQuietly(rs);
             DbUtils.closeQuietly(ps);
@@ -88,6 +86,37 @@ public class DatabaseManager {
         return resultCount;
     }
 
+    /**
+     * Query unit price from product_price table by product id
+     * @param productId the product id of product
+     * @return productPrice
+     * @throws SQLException if the query fails or the product has no price
+     */
+    public int getProductPriceBy(int productId) throws SQLException {
+        int productPrice;
+        String sql = "select product_price from product_price where product_id=?";
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            conn = connect();
+            ps = conn.prepareStatement(sql);
+            ps.setInt(1, productId);
+            rs = ps.executeQuery();
+            if(!rs.next()) {
+                throw new SQLException("No price found for product id " + productId);
+            }
+            productPrice = rs.getInt(1);
+        } finally {
+            DbUtils.closeQuietly(rs);
+            DbUtils.closeQuietly(ps);
+            DbUtils.closeQuietly(conn);
+        }
+
+        return productPrice;
+    }
+
     public int insertIntoProductSalesValues(LocalDate entryDate, Integer productId, Integer salesCount) {
         int updateCount = -1;
         String sql = "insert into product_sales values(?,?,?)";
@@ -6,9 +6,13 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -19,6 +23,11 @@ public class Main {
      *
      */
     public static void main(String[] args) throws Exception {
+        if(args.length > 0 && Constants.REPORT_SERVER_ARG.equals(args[0])) {
+            startReportServer();
+            return;
+        }
+
         // read files sent by Matilda - this will represent daily sales record for a cupcake type
         List<String> cupcakeSalesRecords = retrieveSalesRecordFileNames();
 
@@ -44,6 +53,32 @@ public class Main {
         updateMonthNumberToShortForm();
     }
 
+    /**
+     * Server mode: load all rollups in memory once, serve them over a local HTTP endpoint,
+     * and periodically ingest new records from the text files, applying them to the cache as they are inserted.
+     *
+     */
+    private static void startReportServer() throws IOException, SQLException {
+        // must be set before the first HttpServer is created, see ReportServer
+        System.setProperty(Constants.HTTP_SERVER_NODELAY_PROPERTY, "true");
+
+        ReportCache cache = ReportCache.load(new DatabaseManager());
+        ReportServer server = new ReportServer(cache, Constants.REPORT_SERVER_PORT, Constants.REPORT_SERVER_THREADS);
+        server.start();
+
+        ScheduledExecutorService ingestion = Executors.newSingleThreadScheduledExecutor();
+        ingestion.scheduleWithFixedDelay(() -> {
+            try {
+                for(String cupcakeSalesRecord : retrieveSalesRecordFileNames()) {
+                    int cupcakeType = ProductRef.valueOf(getProductType(cupcakeSalesRecord)).getProductId();
+                    cache.recordSales(updateSalesRecordsInDatabase(cupcakeSalesRecord, cupcakeType), cupcakeType);
+                }
+            } catch(Exception e) {
+                System.out.println("Error while ingesting sales records: " + e.getMessage());
+            }
+        }, 0, Constants.REPORT_SERVER_REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
+
     /**
      * Copy must be created to not overwrite existing template created for Matilda's revenue report.
      * This method creates a copy of the template to the designated output location.
@@ -302,9 +337,10 @@ public class Main {
     /**
      * Retrieve records from the text files provided and compare count with current records in database.
      * if counts do not match (files > records in db), then there is need to update new records in database.
+     * Returns the records that were successfully inserted.
      *
      */
-    private static void updateSalesRecordsInDatabase(String salesRecord, int productId) throws Exception {
+    private static Map<LocalDate, Integer> updateSalesRecordsInDatabase(String salesRecord, int productId) throws Exception {
         // extract line count from file corresponding to cupcake type (list)
         List<Integer> cupcakeDailySalesCount = retrieveSalesRecordContents(salesRecord);
         int newIndex = cupcakeDailySalesCount.size();
@@ -314,7 +350,7 @@ public class Main {
 
         if(currentIndex == newIndex) {
             System.out.println("No new records to insert in database.");
-            return;
+            return Collections.emptyMap();
         }
 
         // prepare new records to insert in DB
@@ -329,18 +365,22 @@ public class Main {
         }
 
         // insert new records in DB
-        int insertCount = 0;
+        Map<LocalDate, Integer> insertedRecords = new HashMap<>();
         for(Map.Entry<LocalDate, Integer> entry : cupcakeDailySalesCountDate.entrySet()) {
-            insertCount = insertCount + insertSalesRecordWhere(entry.getKey(), productId, entry.getValue());
+            if(insertSalesRecordWhere(entry.getKey(), productId, entry.getValue()) == 1) {
+                insertedRecords.put(entry.getKey(), entry.getValue());
+            }
         }
-        System.out.println("Successfully inserted " + insertCount + " new records.");
+        System.out.println("Successfully inserted " + insertedRecords.size() + " new records.");
+
+        return insertedRecords;
     }
 
     /**
      * Method to facilitate query of report contents from database
      *
      */
-    private static List<ReportEntity> queryReportFromDatabase(int productId) {
+    private static List<ReportEntity> queryReportFromDatabase(int productId) throws SQLException {
         DatabaseManager mgr = new DatabaseManager();
         return mgr.getRevenueReportBy(productId);
     }
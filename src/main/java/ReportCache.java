@@ -0,0 +1,269 @@
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory copy of the yearly/monthly/weekly rollups for every product, used by the report server.
+ * Units sold are kept in primitive arrays indexed by product and date bucket, so reads never touch the database.
+ * Writers build a new snapshot and publish it in one step; readers always see a complete snapshot without locking.
+ */
+public class ReportCache {
+    private static final int MONTHS_PER_YEAR = 12;
+    // weeks are counted per month the same way the report query does, so a month spans at most 6 weeks
+    private static final int MAX_WEEKS_PER_MONTH = 6;
+
+    private volatile Snapshot snapshot;
+
+    public ReportCache(int baseYear) {
+        this.snapshot = new Snapshot(baseYear, 1, new int[ProductRef.values().length]);
+    }
+
+    /**
+     * Build the cache from the same report query used for the .xls file.
+     * Fails instead of starting with empty rollups, since later ingestion only adds new records on top.
+     *
+     */
+    public static ReportCache load(DatabaseManager mgr) throws SQLException {
+        ReportCache cache = new ReportCache(LocalDate.now().getYear());
+
+        for(ProductRef product : ProductRef.values()) {
+            int productId = product.getProductId();
+            cache.setUnitPrice(productId, mgr.getProductPriceBy(productId));
+
+            List<ReportEntity> records = mgr.getRevenueReportBy(productId);
+            cache.putAll(records, productId);
+        }
+
+        return cache;
+    }
+
+    /**
+     * Week number of a date within its month, matching the week column of the report query
+     * (weeks start on Monday, week 1 is the week containing the 1st of the month)
+     *
+     */
+    public static int weekOfMonth(LocalDate date) {
+        LocalDate weekStart = date.with(DayOfWeek.MONDAY);
+        LocalDate firstWeekStart = date.withDayOfMonth(1).with(DayOfWeek.MONDAY);
+        return (int) (ChronoUnit.DAYS.between(firstWeekStart, weekStart) / 7) + 1;
+    }
+
+    public synchronized void setUnitPrice(int productId, int unitPrice) {
+        Snapshot current = snapshot;
+        Snapshot next = current.copy(current.baseYear, current.yearCount);
+        next.unitPrices[productIndex(productId)] = Math.max(unitPrice, 0);
+        snapshot = next;
+    }
+
+    /**
+     * Add daily sales records to the rollups, e.g. the records just inserted in the database
+     *
+     */
+    public synchronized void recordSales(Map<LocalDate, Integer> dailySalesCount, int productId) {
+        if(dailySalesCount.isEmpty()) {
+            return;
+        }
+
+        int product = productIndex(productId);
+        Snapshot next = growToFit(snapshot, dailySalesCount.keySet());
+
+        for(Map.Entry<LocalDate, Integer> entry : dailySalesCount.entrySet()) {
+            LocalDate date = entry.getKey();
+            int salesCount = entry.getValue();
+            int year = date.getYear() - next.baseYear;
+            int month = year * MONTHS_PER_YEAR + date.getMonthValue() - 1;
+            int week = month * MAX_WEEKS_PER_MONTH + weekOfMonth(date) - 1;
+
+            next.yearlyUnits[product][year] += salesCount;
+            next.monthlyUnits[product][month] += salesCount;
+            next.weeklyUnits[product][week] += salesCount;
+        }
+
+        snapshot = next;
+    }
+
+    /**
+     * Replace the rollups of a product with rows returned by the report query;
+     * buckets of that product not present in the rows are cleared
+     *
+     */
+    public synchronized void putAll(List<ReportEntity> records, int productId) {
+        int product = productIndex(productId);
+        Snapshot current = snapshot;
+        Snapshot next;
+
+        if(records.isEmpty()) {
+            next = current.copy(current.baseYear, current.yearCount);
+        } else {
+            int minYear = Integer.MAX_VALUE, maxYear = Integer.MIN_VALUE;
+            for(ReportEntity record : records) {
+                minYear = Math.min(minYear, record.getYear());
+                maxYear = Math.max(maxYear, record.getYear());
+            }
+            next = growToFit(current, LocalDate.of(minYear, 1, 1), LocalDate.of(maxYear, 1, 1));
+        }
+
+        Arrays.fill(next.yearlyUnits[product], 0);
+        Arrays.fill(next.monthlyUnits[product], 0);
+        Arrays.fill(next.weeklyUnits[product], 0);
+
+        for(ReportEntity record : records) {
+            int year = record.getYear() - next.baseYear;
+            if(record.getMonth() == 0) {
+                next.yearlyUnits[product][year] = record.getUnitsSold();
+            } else if(record.getWeek() == 0) {
+                int month = year * MONTHS_PER_YEAR + record.getMonth() - 1;
+                next.monthlyUnits[product][month] = record.getUnitsSold();
+            } else {
+                int month = year * MONTHS_PER_YEAR + record.getMonth() - 1;
+                int week = month * MAX_WEEKS_PER_MONTH + record.getWeek() - 1;
+                next.weeklyUnits[product][week] = record.getUnitsSold();
+            }
+            if(record.getUnitPrice() > 0) {
+                next.unitPrices[product] = record.getUnitPrice();
+            }
+        }
+
+        snapshot = next;
+    }
+
+    public ReportEntity getYearly(int productId, int year) {
+        Snapshot current = snapshot;
+        int product = productIndex(productId);
+        int units = current.yearlyUnits(product, year);
+        return new ReportEntity(year, 0, 0, units, current.unitPrices[product], units * current.unitPrices[product]);
+    }
+
+    public ReportEntity getMonthly(int productId, int year, int month) {
+        Snapshot current = snapshot;
+        int product = productIndex(productId);
+        int units = current.monthlyUnits(product, year, month);
+        return new ReportEntity(year, month, 0, units, current.unitPrices[product], units * current.unitPrices[product]);
+    }
+
+    public ReportEntity getWeekly(int productId, int year, int month, int week) {
+        Snapshot current = snapshot;
+        int product = productIndex(productId);
+        int units = current.weeklyUnits(product, year, month, week);
+        return new ReportEntity(year, month, week, units, current.unitPrices[product], units * current.unitPrices[product]);
+    }
+
+    /**
+     * Grand total of all products for a year, month (week == 0) or week; month == 0 means the whole year.
+     * Unit price is left at 0 since it has no meaning across products.
+     *
+     */
+    public ReportEntity getGrandTotal(int year, int month, int week) {
+        Snapshot current = snapshot;
+        int totalUnits = 0, totalRevenue = 0;
+
+        for(int product = 0; product < current.unitPrices.length; product++) {
+            int units;
+            if(month == 0) {
+                units = current.yearlyUnits(product, year);
+            } else if(week == 0) {
+                units = current.monthlyUnits(product, year, month);
+            } else {
+                units = current.weeklyUnits(product, year, month, week);
+            }
+            totalUnits = totalUnits + units;
+            totalRevenue = totalRevenue + units * current.unitPrices[product];
+        }
+
+        return new ReportEntity(year, month, week, totalUnits, 0, totalRevenue);
+    }
+
+    private static int productIndex(int productId) {
+        for(ProductRef product : ProductRef.values()) {
+            if(product.getProductId() == productId) {
+                return product.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("Unknown product id: " + productId);
+    }
+
+    private static Snapshot growToFit(Snapshot current, Iterable<LocalDate> dates) {
+        LocalDate min = null, max = null;
+        for(LocalDate date : dates) {
+            if(Objects.isNull(min) || date.isBefore(min))
+                min = date;
+            if(Objects.isNull(max) || date.isAfter(max))
+                max = date;
+        }
+        return growToFit(current, min, max);
+    }
+
+    /**
+     * Copy of the current snapshot, widened if needed so that both dates fall inside its year range
+     *
+     */
+    private static Snapshot growToFit(Snapshot current, LocalDate min, LocalDate max) {
+        int baseYear = Math.min(current.baseYear, min.getYear());
+        int lastYear = Math.max(current.baseYear + current.yearCount - 1, max.getYear());
+        return current.copy(baseYear, lastYear - baseYear + 1);
+    }
+
+    /**
+     * Immutable once published; only ever modified while being built by a writer
+     *
+     */
+    private static class Snapshot {
+        final int baseYear;
+        final int yearCount;
+        final int[] unitPrices;
+        final int[][] yearlyUnits;
+        final int[][] monthlyUnits;
+        final int[][] weeklyUnits;
+
+        Snapshot(int baseYear, int yearCount, int[] unitPrices) {
+            int productCount = unitPrices.length;
+            this.baseYear = baseYear;
+            this.yearCount = yearCount;
+            this.unitPrices = unitPrices;
+            this.yearlyUnits = new int[productCount][yearCount];
+            this.monthlyUnits = new int[productCount][yearCount * MONTHS_PER_YEAR];
+            this.weeklyUnits = new int[productCount][yearCount * MONTHS_PER_YEAR * MAX_WEEKS_PER_MONTH];
+        }
+
+        Snapshot copy(int newBaseYear, int newYearCount) {
+            Snapshot copy = new Snapshot(newBaseYear, newYearCount, unitPrices.clone());
+            int yearOffset = baseYear - newBaseYear;
+
+            for(int product = 0; product < unitPrices.length; product++) {
+                System.arraycopy(yearlyUnits[product], 0,
+                        copy.yearlyUnits[product], yearOffset, yearCount);
+                System.arraycopy(monthlyUnits[product], 0,
+                        copy.monthlyUnits[product], yearOffset * MONTHS_PER_YEAR, yearCount * MONTHS_PER_YEAR);
+                System.arraycopy(weeklyUnits[product], 0,
+                        copy.weeklyUnits[product], yearOffset * MONTHS_PER_YEAR * MAX_WEEKS_PER_MONTH,
+                        yearCount * MONTHS_PER_YEAR * MAX_WEEKS_PER_MONTH);
+            }
+
+            return copy;
+        }
+
+        int yearlyUnits(int product, int year) {
+            int y = year - baseYear;
+            return (y < 0 || y >= yearCount) ? 0 : yearlyUnits[product][y];
+        }
+
+        int monthlyUnits(int product, int year, int month) {
+            int y = year - baseYear;
+            if(y < 0 || y >= yearCount || month < 1 || month > MONTHS_PER_YEAR)
+                return 0;
+            return monthlyUnits[product][y * MONTHS_PER_YEAR + month - 1];
+        }
+
+        int weeklyUnits(int product, int year, int month, int week) {
+            int y = year - baseYear;
+            if(y < 0 || y >= yearCount || month < 1 || month > MONTHS_PER_YEAR || week < 1 || week > MAX_WEEKS_PER_MONTH)
+                return 0;
+            return weeklyUnits[product][(y * MONTHS_PER_YEAR + month - 1) * MAX_WEEKS_PER_MONTH + week - 1];
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lightweight local HTTP endpoint answering revenue queries from the {@link ReportCache}.
+ * Only listens on the loopback address. Supported queries (GET, response in JSON):
+ *
+ *      /revenue/yearly?product=Basic&year=2020
+ *      /revenue/monthly?product=Basic&year=2020&month=5
+ *      /revenue/weekly?product=Basic&year=2020&month=5&week=2
+ *      /revenue/total?year=2020[&month=5[&week=2]]
+ *
+ * The JDK server writes response headers and body separately, so without TCP_NODELAY each reply waits on a
+ * delayed ACK (~40ms). Run with -Dsun.net.httpserver.nodelay=true, set before any HttpServer is created in the JVM.
+ */
+public class ReportServer {
+    private final ReportCache cache;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ReportServer(ReportCache cache, int port, int threads) throws IOException {
+        this.cache = cache;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+        this.server.createContext("/revenue/", this::handleRevenue);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Report server listening on http://localhost:" + getPort() + "/revenue/");
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleRevenue(HttpExchange exchange) throws IOException {
+        try {
+            if(!"GET".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, error("Only GET is supported"));
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> params = parseQueryString(exchange.getRequestURI().getRawQuery());
+            ProductRef product = null;
+            ReportEntity result;
+
+            switch(path) {
+                case "/revenue/yearly":
+                    product = getProduct(params);
+                    result = cache.getYearly(product.getProductId(), getInt(params, "year"));
+                    break;
+                case "/revenue/monthly":
+                    product = getProduct(params);
+                    result = cache.getMonthly(product.getProductId(), getInt(params, "year"), getInt(params, "month"));
+                    break;
+                case "/revenue/weekly":
+                    product = getProduct(params);
+                    result = cache.getWeekly(product.getProductId(), getInt(params, "year"),
+                            getInt(params, "month"), getInt(params, "week"));
+                    break;
+                case "/revenue/total":
+                    int month = params.containsKey("month") ? getInt(params, "month") : 0;
+                    int week = params.containsKey("week") ? getInt(params, "week") : 0;
+                    if(week != 0 && month == 0) {
+                        throw new IllegalArgumentException("Parameter week requires month");
+                    }
+                    result = cache.getGrandTotal(getInt(params, "year"), month, week);
+                    break;
+                default:
+                    sendResponse(exchange, 404, error("Unknown query, expected /revenue/yearly, /revenue/monthly, /revenue/weekly or /revenue/total"));
+                    return;
+            }
+
+            sendResponse(exchange, 200, toJson(product, result));
+        } catch(IllegalArgumentException e) {
+            sendResponse(exchange, 400, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static ProductRef getProduct(Map<String, String> params) {
+        String product = params.get("product");
+        if(Objects.isNull(product)) {
+            throw new IllegalArgumentException("Missing parameter: product");
+        }
+        for(ProductRef productRef : ProductRef.values()) {
+            if(productRef.name().equalsIgnoreCase(product)) {
+                return productRef;
+            }
+        }
+        throw new IllegalArgumentException("Unknown product: " + product);
+    }
+
+    private static int getInt(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if(Objects.isNull(value)) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Split a raw query string into parameters; values used here are product names and numbers, so no decoding is done
+     *
+     */
+    private static Map<String, String> parseQueryString(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if(Objects.isNull(rawQuery)) {
+            return params;
+        }
+        for(String pair : rawQuery.split("&")) {
+            int idx = pair.indexOf('=');
+            if(idx > 0) {
+                params.put(pair.substring(0, idx), pair.substring(idx + 1));
+            }
+        }
+        return params;
+    }
+
+    private static String toJson(ProductRef product, ReportEntity result) {
+        StringBuilder json = new StringBuilder("{");
+        if(Objects.nonNull(product)) {
+            json.append("\"product\":\"").append(product.name()).append("\",");
+        }
+        json.append("\"year\":").append(result.getYear());
+        if(result.getMonth() != 0) {
+            json.append(",\"month\":").append(result.getMonth());
+        }
+        if(result.getWeek() != 0) {
+            json.append(",\"week\":").append(result.getWeek());
+        }
+        json.append(",\"unitsSold\":").append(result.getUnitsSold());
+        if(Objects.nonNull(product)) {
+            json.append(",\"unitPrice\":").append(result.getUnitPrice());
+        }
+        json.append(",\"revenue\":").append(result.getRevenue());
+        return json.append("}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static void sendResponse(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
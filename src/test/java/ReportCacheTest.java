@@ -0,0 +1,175 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks for the in-memory rollups of the report server. No test framework is used: every public test* method
+ * throws an AssertionError on failure, and main runs them all.
+ *
+ */
+public class ReportCacheTest {
+    private static final int BASIC = ProductRef.Basic.getProductId();
+    private static final int DELUXE = ProductRef.Deluxe.getProductId();
+
+    public static void main(String[] args) {
+        ReportCacheTest test = new ReportCacheTest();
+        test.testWeekOfMonthMatchesReportQuery();
+        test.testRollupsKeptWhenBaseYearMovesBack();
+        test.testRollupsKeptWhenYearsAreAdded();
+        test.testRecordSalesAddsOntoLoadedRollups();
+        test.testPutAllReplacesProductRollups();
+        test.testGrandTotals();
+        test.testOutOfRangeBucketsAreZero();
+        System.out.println("ReportCacheTest: all checks passed");
+    }
+
+    /**
+     * Expected weeks follow the report query: date_trunc('week') starts weeks on Monday,
+     * and week 1 is the week containing the 1st of the month
+     *
+     */
+    public void testWeekOfMonthMatchesReportQuery() {
+        // October 2026 starts on a Thursday
+        assertWeek("2026-10-01", 1);
+        assertWeek("2026-10-04", 1);
+        assertWeek("2026-10-05", 2);
+        assertWeek("2026-10-31", 5);
+        // June 2026 starts on a Monday
+        assertWeek("2026-06-01", 1);
+        assertWeek("2026-06-07", 1);
+        assertWeek("2026-06-08", 2);
+        assertWeek("2026-06-30", 5);
+        // March 2026 starts on a Sunday, so it spans 6 weeks
+        assertWeek("2026-03-01", 1);
+        assertWeek("2026-03-02", 2);
+        assertWeek("2026-03-31", 6);
+        // the Monday of the week of Feb 1st 2026 is in January
+        assertWeek("2026-02-28", 5);
+        // weeks are counted per month even when the ISO week crosses the year
+        assertWeek("2024-12-30", 6);
+        assertWeek("2025-01-01", 1);
+    }
+
+    public void testRollupsKeptWhenBaseYearMovesBack() {
+        ReportCache cache = new ReportCache(2025);
+        cache.recordSales(sales("2025-06-10", 5), BASIC);
+        cache.recordSales(sales("2025-06-10", 9), DELUXE);
+
+        cache.recordSales(sales("2022-03-15", 3), BASIC);
+
+        assertUnits("2025 yearly", 5, cache.getYearly(BASIC, 2025));
+        assertUnits("2025 monthly", 5, cache.getMonthly(BASIC, 2025, 6));
+        assertUnits("2025 weekly", 5, cache.getWeekly(BASIC, 2025, 6, 3));
+        assertUnits("2025 deluxe weekly", 9, cache.getWeekly(DELUXE, 2025, 6, 3));
+        assertUnits("2022 yearly", 3, cache.getYearly(BASIC, 2022));
+        assertUnits("2022 monthly", 3, cache.getMonthly(BASIC, 2022, 3));
+        assertUnits("2022 weekly", 3, cache.getWeekly(BASIC, 2022, 3, 3));
+        assertUnits("2023 yearly", 0, cache.getYearly(BASIC, 2023));
+        assertUnits("2024 yearly", 0, cache.getYearly(BASIC, 2024));
+    }
+
+    public void testRollupsKeptWhenYearsAreAdded() {
+        ReportCache cache = new ReportCache(2024);
+        cache.recordSales(sales("2024-12-30", 4), BASIC);
+
+        cache.recordSales(sales("2027-01-01", 6), BASIC);
+
+        assertUnits("2024 weekly", 4, cache.getWeekly(BASIC, 2024, 12, 6));
+        assertUnits("2027 weekly", 6, cache.getWeekly(BASIC, 2027, 1, 1));
+        assertUnits("2026 yearly", 0, cache.getYearly(BASIC, 2026));
+    }
+
+    public void testRecordSalesAddsOntoLoadedRollups() {
+        ReportCache cache = new ReportCache(2026);
+        cache.putAll(Arrays.asList(
+                new ReportEntity(2026, 0, 0, 100, 5, 500),
+                new ReportEntity(2026, 10, 0, 40, 5, 200),
+                new ReportEntity(2026, 10, 2, 10, 5, 50)
+        ), BASIC);
+
+        cache.recordSales(sales("2026-10-05", 7), BASIC);
+
+        ReportEntity yearly = cache.getYearly(BASIC, 2026);
+        assertUnits("yearly", 107, yearly);
+        assertEquals("yearly unit price", 5, yearly.getUnitPrice());
+        assertEquals("yearly revenue", 535, yearly.getRevenue());
+        assertUnits("monthly", 47, cache.getMonthly(BASIC, 2026, 10));
+        assertUnits("weekly", 17, cache.getWeekly(BASIC, 2026, 10, 2));
+        assertUnits("other week", 0, cache.getWeekly(BASIC, 2026, 10, 1));
+    }
+
+    public void testPutAllReplacesProductRollups() {
+        ReportCache cache = new ReportCache(2026);
+        cache.recordSales(sales("2026-03-02", 8), BASIC);
+        cache.recordSales(sales("2026-03-02", 2), DELUXE);
+
+        cache.putAll(Collections.singletonList(new ReportEntity(2026, 10, 0, 40, 5, 200)), BASIC);
+
+        assertUnits("replaced monthly", 40, cache.getMonthly(BASIC, 2026, 10));
+        assertUnits("stale monthly", 0, cache.getMonthly(BASIC, 2026, 3));
+        assertUnits("stale weekly", 0, cache.getWeekly(BASIC, 2026, 3, 2));
+        assertUnits("other product", 2, cache.getWeekly(DELUXE, 2026, 3, 2));
+
+        cache.putAll(Collections.emptyList(), BASIC);
+        assertUnits("cleared monthly", 0, cache.getMonthly(BASIC, 2026, 10));
+        assertEquals("price kept", 5, cache.getYearly(BASIC, 2026).getUnitPrice());
+    }
+
+    public void testGrandTotals() {
+        ReportCache cache = new ReportCache(2026);
+        cache.setUnitPrice(BASIC, 5);
+        cache.setUnitPrice(DELUXE, 10);
+        Map<LocalDate, Integer> basicSales = sales("2026-10-05", 3);
+        basicSales.put(LocalDate.parse("2026-10-12"), 4);
+        basicSales.put(LocalDate.parse("2026-11-02"), 1);
+        cache.recordSales(basicSales, BASIC);
+        cache.recordSales(sales("2026-10-06", 2), DELUXE);
+
+        ReportEntity weekly = cache.getGrandTotal(2026, 10, 2);
+        assertUnits("weekly", 5, weekly);
+        assertEquals("weekly revenue", 3 * 5 + 2 * 10, weekly.getRevenue());
+        assertEquals("weekly unit price", 0, weekly.getUnitPrice());
+
+        ReportEntity monthly = cache.getGrandTotal(2026, 10, 0);
+        assertUnits("monthly", 9, monthly);
+        assertEquals("monthly revenue", 7 * 5 + 2 * 10, monthly.getRevenue());
+
+        ReportEntity yearly = cache.getGrandTotal(2026, 0, 0);
+        assertUnits("yearly", 10, yearly);
+        assertEquals("yearly revenue", 8 * 5 + 2 * 10, yearly.getRevenue());
+    }
+
+    public void testOutOfRangeBucketsAreZero() {
+        ReportCache cache = new ReportCache(2026);
+        cache.setUnitPrice(BASIC, 5);
+        cache.recordSales(sales("2026-10-05", 7), BASIC);
+
+        assertUnits("year before range", 0, cache.getYearly(BASIC, 2020));
+        assertUnits("year after range", 0, cache.getYearly(BASIC, 2030));
+        assertUnits("month 0", 0, cache.getMonthly(BASIC, 2026, 0));
+        assertUnits("month 13", 0, cache.getMonthly(BASIC, 2026, 13));
+        assertUnits("week 7", 0, cache.getWeekly(BASIC, 2026, 10, 7));
+    }
+
+    private static Map<LocalDate, Integer> sales(String date, int salesCount) {
+        Map<LocalDate, Integer> dailySalesCount = new HashMap<>();
+        dailySalesCount.put(LocalDate.parse(date), salesCount);
+        return dailySalesCount;
+    }
+
+    private static void assertWeek(String date, int expected) {
+        assertEquals("week of " + date, expected, ReportCache.weekOfMonth(LocalDate.parse(date)));
+    }
+
+    private static void assertUnits(String message, int expected, ReportEntity actual) {
+        assertEquals(message + " units sold", expected, actual.getUnitsSold());
+    }
+
+    private static void assertEquals(String message, int expected, int actual) {
+        if(expected != actual) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+}
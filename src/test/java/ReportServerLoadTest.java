@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test for the report server: seeds a cache with generated daily sales (no database needed),
+ * then measures p50/p99 latency of random queries under concurrent clients, first reading the cache directly and
+ * then through the server started on a free port.
+ * Every response is checked against the value read directly from the cache.
+ *
+ * Usage: ReportServerLoadTest [clients] [requestsPerClient]
+ */
+public class ReportServerLoadTest {
+    private static final int SEED_YEARS = 5;
+    private static final int WARMUP_REQUESTS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        LocalDate lastDay = LocalDate.now();
+        LocalDate firstDay = lastDay.minusYears(SEED_YEARS);
+        ReportCache cache = seedCache(firstDay, lastDay);
+
+        // cache reads alone, without HTTP
+        runCacheReader(cache, firstDay, lastDay, WARMUP_REQUESTS);
+        printLatencies("ReportCache reads", clients,
+                () -> runCacheReader(cache, firstDay, lastDay, requestsPerClient));
+
+        // must be set before the first HttpServer is created, see ReportServer
+        System.setProperty(Constants.HTTP_SERVER_NODELAY_PROPERTY, "true");
+        // one server thread per client, so requests do not queue for a free handler
+        ReportServer server = new ReportServer(cache, 0, clients);
+        server.start();
+
+        try {
+            String baseUrl = "http://localhost:" + server.getPort() + "/revenue/";
+            runClient(baseUrl, cache, firstDay, lastDay, WARMUP_REQUESTS);
+            printLatencies("HTTP requests", clients,
+                    () -> runClient(baseUrl, cache, firstDay, lastDay, requestsPerClient));
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Run the same task on concurrent threads and print p50/p99 of the latencies they return
+     *
+     */
+    private static void printLatencies(String label, int clients, Callable<long[]> task) throws Exception {
+        ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for(int i = 0; i < clients; i++) {
+            results.add(clientPool.submit(task));
+        }
+
+        long[] latencies = new long[0];
+        for(Future<long[]> result : results) {
+            long[] clientLatencies = result.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + clientLatencies.length);
+            System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+        }
+        long elapsed = System.nanoTime() - start;
+        clientPool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.println(label + " - clients: " + clients + ", requests: " + latencies.length);
+        System.out.println("    throughput: " + (latencies.length * 1_000_000_000L / elapsed) + " req/s");
+        System.out.println("    p50: " + toMicros(percentile(latencies, 50)) + " us");
+        System.out.println("    p99: " + toMicros(percentile(latencies, 99)) + " us");
+        System.out.println("    max: " + toMicros(latencies[latencies.length - 1]) + " us");
+    }
+
+    private static ReportCache seedCache(LocalDate firstDay, LocalDate lastDay) {
+        ReportCache cache = new ReportCache(firstDay.getYear());
+        for(ProductRef product : ProductRef.values()) {
+            Map<LocalDate, Integer> dailySalesCount = new HashMap<>();
+            for(LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+                dailySalesCount.put(date, ThreadLocalRandom.current().nextInt(0, 50));
+            }
+            cache.setUnitPrice(product.getProductId(), product.getProductId() / 20);
+            cache.recordSales(dailySalesCount, product.getProductId());
+        }
+        return cache;
+    }
+
+    /**
+     * Read random buckets directly from the cache and return the latency of each read in nanoseconds
+     *
+     */
+    private static long[] runCacheReader(ReportCache cache, LocalDate firstDay, LocalDate lastDay, int requests) {
+        long[] latencies = new long[requests];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ProductRef[] products = ProductRef.values();
+        long checksum = 0;
+
+        for(int i = 0; i < requests; i++) {
+            LocalDate date = firstDay.plusDays(random.nextLong(ChronoUnit.DAYS.between(firstDay, lastDay) + 1));
+            int productId = products[random.nextInt(products.length)].getProductId();
+            int week = ReportCache.weekOfMonth(date);
+            ReportEntity result;
+
+            long start = System.nanoTime();
+            switch(i % 4) {
+                case 0:
+                    result = cache.getYearly(productId, date.getYear());
+                    break;
+                case 1:
+                    result = cache.getMonthly(productId, date.getYear(), date.getMonthValue());
+                    break;
+                case 2:
+                    result = cache.getWeekly(productId, date.getYear(), date.getMonthValue(), week);
+                    break;
+                default:
+                    result = cache.getGrandTotal(date.getYear(), date.getMonthValue(), 0);
+            }
+            latencies[i] = System.nanoTime() - start;
+            checksum = checksum + result.getRevenue();
+        }
+
+        // keep the reads from being optimized away
+        if(checksum == Long.MIN_VALUE) {
+            System.out.println(checksum);
+        }
+        return latencies;
+    }
+
+    /**
+     * Send requests one after another (keep-alive) and return the latency of each in nanoseconds
+     *
+     */
+    private static long[] runClient(String baseUrl, ReportCache cache, LocalDate firstDay, LocalDate lastDay, int requests)
+            throws IOException {
+        long[] latencies = new long[requests];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ProductRef[] products = ProductRef.values();
+
+        for(int i = 0; i < requests; i++) {
+            LocalDate date = firstDay.plusDays(random.nextLong(ChronoUnit.DAYS.between(firstDay, lastDay) + 1));
+            ProductRef product = products[random.nextInt(products.length)];
+            int week = ReportCache.weekOfMonth(date);
+            String query;
+            ReportEntity expected;
+            switch(i % 4) {
+                case 0:
+                    query = "yearly?product=" + product + "&year=" + date.getYear();
+                    expected = cache.getYearly(product.getProductId(), date.getYear());
+                    break;
+                case 1:
+                    query = "monthly?product=" + product + "&year=" + date.getYear() + "&month=" + date.getMonthValue();
+                    expected = cache.getMonthly(product.getProductId(), date.getYear(), date.getMonthValue());
+                    break;
+                case 2:
+                    query = "weekly?product=" + product + "&year=" + date.getYear() + "&month=" + date.getMonthValue()
+                            + "&week=" + week;
+                    expected = cache.getWeekly(product.getProductId(), date.getYear(), date.getMonthValue(), week);
+                    break;
+                default:
+                    query = "total?year=" + date.getYear() + "&month=" + date.getMonthValue();
+                    expected = cache.getGrandTotal(date.getYear(), date.getMonthValue(), 0);
+            }
+
+            long start = System.nanoTime();
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + query).openConnection();
+            if(connection.getResponseCode() != 200) {
+                throw new IOException("Unexpected response " + connection.getResponseCode() + " for " + query);
+            }
+            String body;
+            try(InputStream inputStream = connection.getInputStream()) {
+                // reading the whole body also lets the connection be reused
+                body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            latencies[i] = System.nanoTime() - start;
+
+            if(!body.contains("\"unitsSold\":" + expected.getUnitsSold() + ",")
+                    || !body.endsWith("\"revenue\":" + expected.getRevenue() + "}")) {
+                throw new IOException("Unexpected body for " + query + ": " + body);
+            }
+        }
+
+        return latencies;
+    }
+
+    private static long percentile(long[] sortedValues, int percentile) {
+        int idx = (int) Math.ceil(percentile / 100.0 * sortedValues.length) - 1;
+        return sortedValues[Math.max(idx, 0)];
+    }
+
+    private static String toMicros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+}